@@ -1,5 +1,6 @@
 package com.opus4j.core;
 
+import com.sun.jna.Library;
 import com.sun.jna.Native;
 import com.sun.jna.NativeLibrary;
 import com.sun.jna.Structure;
@@ -62,6 +63,18 @@ public class NativeMappings {
     static native int opus_decode(OpusDecoder decoder, byte[] data, int length, ShortBuffer pcm,
                                   int frameSize, int decodeFec);
 
+    /** Gets the number of samples of an Opus packet.
+     * @param packet <tt>char*</tt>: Opus packet
+     * @param length <tt>opus_int32</tt>: Length of packet
+     * @param sampleRate <tt>opus_int32</tt>: Sampling rate in Hz.
+     *                                     This must be a multiple of 400, or
+     *                                     inaccurate results will be returned.
+     * @return Number of samples per channel, #OPUS_BAD_ARG if insufficient data was passed to the function or
+     *  #OPUS_INVALID_PACKET if the compressed data passed is corrupted or of an unsupported type
+     */
+    // int opus_packet_get_nb_samples (const unsigned char packet[], opus_int32 len, opus_int32 Fs)
+    static native int opus_packet_get_nb_samples(byte[] packet, int length, int sampleRate);
+
     /** Frees an <code>OpusDecoder</code> allocated by opus_decoder_create().
      * @param decoder <tt>OpusDecoder*</tt>: State to be freed.
      */
@@ -140,6 +153,27 @@ public class NativeMappings {
      */
     static native void opus_encoder_destroy(OpusEncoder encoder);
 
+    /**
+     * Variadic functions of the native library.
+     * Direct mapping cannot call variadic functions, and calling them through a fixed-argument prototype is
+     * undefined behaviour (on Apple arm64, for example, variadic arguments are passed on the stack). These are
+     * therefore bound through an interface mapping, which JNA calls with the variadic calling convention.
+     */
+    interface Variadic extends Library {
+
+        Variadic INSTANCE = Native.load(OPUS_LIB_NAME, Variadic.class);
+
+        /** Perform a CTL function on an Opus encoder.
+         * @param encoder <tt>OpusEncoder*</tt>: Encoder state
+         * @param request <tt>int</tt>: The request to perform (see {@link CtlRequest})
+         * @param args The request's arguments: an <tt>Integer</tt> for setters, an <tt>IntByReference</tt>
+         *             receiving the value for getters
+         * @return #OPUS_OK on success or @ref opus_errorcodes
+         */
+        // int opus_encoder_ctl (OpusEncoder *st, int request, ...)
+        int opus_encoder_ctl(OpusEncoder encoder, int request, Object... args);
+    }
+
     /**
      * OpusDecoder decoder state.
      * This contains the complete state of an OpusDecoder decoder.
@@ -447,4 +481,103 @@ public class NativeMappings {
             return value;
         }
     }
+
+    /**
+     * Frame durations the encoder can be pinned to.
+     * Used in {@link com.opus4j.core.OpusEncoder#setExpertFrameDuration(FrameDuration)}
+     */
+    public enum FrameDuration {
+        /** Let the encoder choose the frame duration from the size of the input */
+        OPUS_FRAMESIZE_ARG (5000, 0),
+
+        /** 2.5 ms frames. CELT only */
+        OPUS_FRAMESIZE_2_5_MS (5001, 2500),
+
+        /** 5 ms frames. CELT only */
+        OPUS_FRAMESIZE_5_MS (5002, 5000),
+
+        /** 10 ms frames */
+        OPUS_FRAMESIZE_10_MS (5003, 10000),
+
+        /** 20 ms frames */
+        OPUS_FRAMESIZE_20_MS (5004, 20000),
+
+        /** 40 ms frames */
+        OPUS_FRAMESIZE_40_MS (5005, 40000),
+
+        /** 60 ms frames */
+        OPUS_FRAMESIZE_60_MS (5006, 60000);
+
+        /** The value of the frame duration. Used in native code. */
+        private int value;
+
+        /** The duration in microseconds, 0 for {@link #OPUS_FRAMESIZE_ARG} */
+        private int micros;
+
+        FrameDuration(int value, int micros) {
+            this.value = value;
+            this.micros = micros;
+        }
+
+        /**
+         * Get the native value
+         * @return the native value.
+         */
+        public int getValue() {
+            return value;
+        }
+
+        /**
+         * Get the duration of a frame
+         * @return the duration in microseconds, 0 for {@link #OPUS_FRAMESIZE_ARG}
+         */
+        public int getMicros() {
+            return micros;
+        }
+
+        /**
+         * Get the number of samples per channel in a frame of this duration
+         * @param sampleRate Sample rate. Must be one of: 8000/12000/16000/24000/48000
+         * @return the number of samples per channel, 0 for {@link #OPUS_FRAMESIZE_ARG}
+         */
+        public int getSamplesPerChannel(int sampleRate) {
+            return (int) ((long) sampleRate * micros / 1000000);
+        }
+    }
+
+    /**
+     * Generic and encoder CTL requests, as defined in <tt>opus_defines.h</tt>.
+     * Used with {@link Variadic#opus_encoder_ctl(OpusEncoder, int, Object...)}.
+     */
+    enum CtlRequest {
+        /** Configures the encoder's computational complexity (0-10) */
+        OPUS_SET_COMPLEXITY (4010),
+
+        /** Gets the encoder's complexity configuration */
+        OPUS_GET_COMPLEXITY (4011),
+
+        /** Gets the total samples of delay added by the entire codec, at the encoder's sample rate */
+        OPUS_GET_LOOKAHEAD (4027),
+
+        /** Configures the encoder's use of variable duration frames (see {@link FrameDuration}) */
+        OPUS_SET_EXPERT_FRAME_DURATION (4040),
+
+        /** If set to 1, disables almost all use of prediction, making frames almost completely independent */
+        OPUS_SET_PREDICTION_DISABLED (4042);
+
+        /** The value of the request. Used in native code. */
+        private int value;
+
+        CtlRequest(int value) {
+            this.value = value;
+        }
+
+        /**
+         * Get the native value
+         * @return the native value.
+         */
+        int getValue() {
+            return value;
+        }
+    }
 }
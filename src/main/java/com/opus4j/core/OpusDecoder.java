@@ -16,10 +16,23 @@ import java.nio.ShortBuffer;
  */
 public class OpusDecoder {
 
+    /** The longest duration of a single Opus packet, in milliseconds */
+    private static final int MAX_PACKET_DURATION_MS = 120;
+
     /** The native decoder state */
     private NativeMappings.OpusDecoder decoderState;
 
-    /** The maximum pcm buffer to decode. Based on the maximum packet size (allocates twice than the max size) */
+    /** The sample rate the decoder decodes at */
+    private final int sampleRate;
+
+    /** The number of channels the decoder decodes to */
+    private final int channels;
+
+    /**
+     * The pcm buffer to decode into.
+     * Sized by maxPacketSize for {@link #decode(byte[], int, boolean)}. {@link #decode(byte[], boolean)} grows it
+     * to the largest packet seen so far, up to 120 ms of interleaved samples.
+     */
     private ShortBuffer pcmBuffer;
 
     /**
@@ -27,8 +40,10 @@ public class OpusDecoder {
      *
      * @param decoderState the native decoder state to use
      */
-    OpusDecoder(NativeMappings.OpusDecoder decoderState, int maxPacketSize) {
+    OpusDecoder(NativeMappings.OpusDecoder decoderState, int sampleRate, int channels, int maxPacketSize) {
         this.decoderState = decoderState;
+        this.sampleRate = sampleRate;
+        this.channels = channels;
         this.pcmBuffer = ShortBuffer.allocate(maxPacketSize);
     }
 
@@ -37,9 +52,14 @@ public class OpusDecoder {
      * Decode a frame.
      * @see NativeMappings#opus_decode(NativeMappings.OpusDecoder, byte[], int, ShortBuffer, int, int)
      * @return a buffer contains the decoded frame
-     * @throws OpusNativeException in case of native exception
+     * @throws OpusNativeException in case the pcm buffer cannot hold samplesPerChannel samples of every channel,
+     *                             or of native exception
      */
     public ShortBuffer decode(byte[] data, int samplesPerChannel, boolean decodeFec) throws OpusNativeException {
+        if ((long) samplesPerChannel * channels > pcmBuffer.capacity()) {
+            throw new OpusNativeException(ErrorCode.OPUS_BUFFER_TOO_SMALL);
+        }
+
         int framesDecoded = NativeMappings.opus_decode(decoderState, data, data.length, pcmBuffer,
                 samplesPerChannel, decodeFec ? 1: 0);
         if (framesDecoded < 0) {
@@ -56,6 +76,43 @@ public class OpusDecoder {
         }
     }
 
+    /**
+     * Decode a packet, sizing the frame from the packet itself.
+     * The number of samples is read from the packet, and the pcm buffer is grown to fit it if needed.
+     * @see NativeMappings#opus_packet_get_nb_samples(byte[], int, int)
+     * @see NativeMappings#opus_decode(NativeMappings.OpusDecoder, byte[], int, ShortBuffer, int, int)
+     * @return a buffer contains the decoded frame, all channels interleaved
+     * @throws OpusNativeException in case of an invalid packet or native exception
+     */
+    public ShortBuffer decode(byte[] data, boolean decodeFec) throws OpusNativeException {
+        int samplesPerChannel = NativeMappings.opus_packet_get_nb_samples(data, data.length, sampleRate);
+        if (samplesPerChannel < 0) {
+            throw new OpusNativeException(ErrorCode.fromErrorNum(samplesPerChannel));
+        }
+        if (samplesPerChannel > sampleRate / 1000 * MAX_PACKET_DURATION_MS) {
+            throw new OpusNativeException(ErrorCode.OPUS_INVALID_PACKET);
+        }
+
+        if (pcmBuffer.capacity() < samplesPerChannel * channels) {
+            pcmBuffer = ShortBuffer.allocate(samplesPerChannel * channels);
+        }
+
+        int framesDecoded = NativeMappings.opus_decode(decoderState, data, data.length, pcmBuffer,
+                samplesPerChannel, decodeFec ? 1: 0);
+        if (framesDecoded < 0) {
+            throw new OpusNativeException(ErrorCode.fromErrorNum(framesDecoded));
+        }
+
+        try {
+            short[] outputBuffer = new short[framesDecoded * channels];
+            pcmBuffer.get(outputBuffer);
+
+            return ShortBuffer.wrap(outputBuffer);
+        } finally {
+            pcmBuffer.position(0);
+        }
+    }
+
     /**
      * Destroy the native state.
      * MUST be called in order to avoid memory leaks.
@@ -85,6 +142,22 @@ public class OpusDecoder {
             throw new OpusNativeException(errorCode);
         }
 
-        return new OpusDecoder(decoderState, maxPacketSize);
+        return new OpusDecoder(decoderState, sampleRate, channels, maxPacketSize);
+    }
+
+    /**
+     * Create a new OpusDecoder that sizes its buffer from the packets it decodes.
+     * Use with {@link #decode(byte[], boolean)}. The buffer starts empty and only grows to the largest packet
+     * decoded, so a stream of 20 ms stereo packets at 48 kHz holds 1920 shorts rather than the 120 ms worst case.
+     *
+     * @param sampleRate Sample rate. Must be one of: 8000/12000/16000/24000/48000
+     *
+     * @param channels The number of channels. Must be one of 1/2
+     *
+     * @return a new OpusDecoder state
+     * @throws OpusNativeException in case of internal or api error
+     */
+    public static OpusDecoder create(int sampleRate, int channels) throws OpusNativeException {
+        return create(sampleRate, channels, 0);
     }
 }
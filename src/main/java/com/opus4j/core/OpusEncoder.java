@@ -2,6 +2,7 @@ package com.opus4j.core;
 
 import com.opus4j.core.errors.ErrorCode;
 import com.opus4j.core.errors.OpusNativeException;
+import com.sun.jna.ptr.IntByReference;
 
 import java.nio.ByteBuffer;
 import java.nio.IntBuffer;
@@ -56,6 +57,80 @@ public class OpusEncoder {
         }
     }
 
+    /**
+     * Set the encoder's computational complexity.
+     * Lower values trade quality for less CPU spent per frame.
+     * @param complexity the complexity to use, 0 (lowest) to 10 (highest)
+     * @throws OpusNativeException in case the value is out of range or the native call failed
+     */
+    public void setComplexity(int complexity) throws OpusNativeException {
+        ctl(NativeMappings.CtlRequest.OPUS_SET_COMPLEXITY, complexity);
+    }
+
+    /**
+     * Get the encoder's computational complexity.
+     * @return the current complexity, 0 (lowest) to 10 (highest)
+     * @throws OpusNativeException in case of native error
+     */
+    public int getComplexity() throws OpusNativeException {
+        return ctlGet(NativeMappings.CtlRequest.OPUS_GET_COMPLEXITY);
+    }
+
+    /**
+     * Pin the duration of encoded frames, instead of deriving it from the size of the input.
+     * Once pinned, {@link #encode(ShortBuffer, int)} must be given exactly one frame of that duration: longer
+     * input is silently truncated to the first frame, shorter input fails.
+     * @param frameDuration the frame duration to use
+     * @throws OpusNativeException in case of native error
+     */
+    public void setExpertFrameDuration(NativeMappings.FrameDuration frameDuration) throws OpusNativeException {
+        ctl(NativeMappings.CtlRequest.OPUS_SET_EXPERT_FRAME_DURATION, frameDuration.getValue());
+    }
+
+    /**
+     * Disable almost all use of prediction, making frames almost completely independent.
+     * Improves resilience to packet loss, at a cost in quality.
+     * @param predictionDisabled true to disable prediction
+     * @throws OpusNativeException in case of native error
+     */
+    public void setPredictionDisabled(boolean predictionDisabled) throws OpusNativeException {
+        ctl(NativeMappings.CtlRequest.OPUS_SET_PREDICTION_DISABLED, predictionDisabled ? 1 : 0);
+    }
+
+    /**
+     * Get the total delay added by the codec, on top of the frame duration.
+     * @return the lookahead, in samples per channel at the encoder's sample rate
+     * @throws OpusNativeException in case of native error
+     */
+    public int getLookahead() throws OpusNativeException {
+        return ctlGet(NativeMappings.CtlRequest.OPUS_GET_LOOKAHEAD);
+    }
+
+    /**
+     * Perform a setter CTL request on the native state.
+     * @throws OpusNativeException in case of native error
+     */
+    private void ctl(NativeMappings.CtlRequest request, int value) throws OpusNativeException {
+        int result = NativeMappings.Variadic.INSTANCE.opus_encoder_ctl(state, request.getValue(), value);
+        if (result < 0) {
+            throw new OpusNativeException(ErrorCode.fromErrorNum(result));
+        }
+    }
+
+    /**
+     * Perform a getter CTL request on the native state.
+     * @return the value returned by the native library
+     * @throws OpusNativeException in case of native error
+     */
+    private int ctlGet(NativeMappings.CtlRequest request) throws OpusNativeException {
+        IntByReference value = new IntByReference();
+        int result = NativeMappings.Variadic.INSTANCE.opus_encoder_ctl(state, request.getValue(), value);
+        if (result < 0) {
+            throw new OpusNativeException(ErrorCode.fromErrorNum(result));
+        }
+        return value.getValue();
+    }
+
     /**
      * Destroy the native state.
      * MUST be called in order to avoid memory leaks.
@@ -86,4 +161,37 @@ public class OpusEncoder {
         }
         return new OpusEncoder(encoder, ByteBuffer.allocate(maxEncodedFrameSize));
     }
+
+    /**
+     * Creates a new encoder tuned for the lowest achievable latency.
+     * Uses {@link NativeMappings.EncodingApplication#OPUS_APPLICATION_RESTRICTED_LOWDELAY}, pins the frame
+     * duration and disables prediction. Query {@link #getLookahead()} for the delay the codec adds on top of the
+     * frame duration.
+     *
+     * {@link #encode(ShortBuffer, int)} must then be called with exactly
+     * {@code frameDuration.getSamplesPerChannel(sampleRate)} samples per channel. Longer input is silently
+     * truncated to the first frame, and shorter input fails.
+     * @see #create(int, int, NativeMappings.EncodingApplication, int)
+     * @param frameDuration the frame duration to pin. Usually 2.5 or 5 ms. Must not be
+     *                      {@link NativeMappings.FrameDuration#OPUS_FRAMESIZE_ARG}
+     * @return a newly created Opus Encoder state.
+     * @throws OpusNativeException in case of internal error while trying to create or configure the encoder
+     */
+    public static OpusEncoder createLowLatency(int sampleRate, int channels,
+                                               NativeMappings.FrameDuration frameDuration,
+                                               int maxEncodedFrameSize) throws OpusNativeException {
+        if (frameDuration == NativeMappings.FrameDuration.OPUS_FRAMESIZE_ARG) {
+            throw new IllegalArgumentException("A low latency encoder needs a fixed frame duration");
+        }
+        OpusEncoder encoder = create(sampleRate, channels,
+                NativeMappings.EncodingApplication.OPUS_APPLICATION_RESTRICTED_LOWDELAY, maxEncodedFrameSize);
+        try {
+            encoder.setExpertFrameDuration(frameDuration);
+            encoder.setPredictionDisabled(true);
+        } catch (OpusNativeException e) {
+            encoder.destroy();
+            throw e;
+        }
+        return encoder;
+    }
 }
@@ -0,0 +1,161 @@
+package com.opus4j.core.bench;
+
+import com.opus4j.core.NativeMappings;
+import com.opus4j.core.OpusDecoder;
+import com.opus4j.core.OpusEncoder;
+
+import java.nio.ByteBuffer;
+import java.nio.ShortBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Measures capture-to-decode latency of low-latency {@link OpusEncoder} to {@link OpusDecoder} streams, with
+ * several streams running concurrently in real time.
+ *
+ * For every frame, latency is counted from the moment the last sample of the frame was captured until the
+ * decoder returned it, plus the codec lookahead. Reported as percentiles over all frames of all streams.
+ *
+ * Usage: LatencyHarness [streams] [seconds] [frame duration: 2.5/5/10/20] [sample rate] [channels]
+ */
+public class LatencyHarness {
+
+    /** Generous upper bound for a single encoded frame */
+    private static final int MAX_ENCODED_FRAME_SIZE = 4000;
+
+    public static void main(String[] args) throws Exception {
+        int streams = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        NativeMappings.FrameDuration frameDuration = args.length > 2 ? parseFrameDuration(args[2])
+                : NativeMappings.FrameDuration.OPUS_FRAMESIZE_2_5_MS;
+        int sampleRate = args.length > 3 ? Integer.parseInt(args[3]) : 48000;
+        int channels = args.length > 4 ? Integer.parseInt(args[4]) : 2;
+
+        List<Stream> all = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < streams; ++i) {
+            Stream stream = new Stream(sampleRate, channels, frameDuration, seconds);
+            Thread thread = new Thread(stream, "latency-stream-" + i);
+            all.add(stream);
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        int total = 0;
+        for (Stream stream : all) {
+            if (stream.failure != null) {
+                throw stream.failure;
+            }
+            total += stream.count;
+        }
+        long[] latencies = new long[total];
+        int offset = 0;
+        for (Stream stream : all) {
+            System.arraycopy(stream.latencies, 0, latencies, offset, stream.count);
+            offset += stream.count;
+        }
+        Arrays.sort(latencies);
+
+        long lookaheadNanos = all.get(0).lookaheadNanos;
+        System.out.printf("%d streams, %d Hz, %d channels, %.1f ms frames, lookahead %.2f ms, %d frames%n",
+                streams, sampleRate, channels, frameDuration.getMicros() / 1000.0, lookaheadNanos / 1e6, total);
+        for (double percentile : new double[] {50, 90, 99, 99.9, 100}) {
+            System.out.printf("p%-5s %8.3f ms%n", percentile, percentile(latencies, percentile) / 1e6);
+        }
+    }
+
+    private static NativeMappings.FrameDuration parseFrameDuration(String millis) {
+        int micros = (int) Math.round(Double.parseDouble(millis) * 1000);
+        for (NativeMappings.FrameDuration duration : NativeMappings.FrameDuration.values()) {
+            if (duration != NativeMappings.FrameDuration.OPUS_FRAMESIZE_ARG && duration.getMicros() == micros) {
+                return duration;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported frame duration: " + millis);
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    /**
+     * A single encoder to decoder stream, fed one frame per frame duration.
+     */
+    private static class Stream implements Runnable {
+
+        private final int sampleRate;
+        private final int channels;
+        private final NativeMappings.FrameDuration frameDuration;
+        private final long[] latencies;
+
+        private int count;
+        private long lookaheadNanos;
+        private volatile Exception failure;
+
+        Stream(int sampleRate, int channels, NativeMappings.FrameDuration frameDuration, int seconds) {
+            this.sampleRate = sampleRate;
+            this.channels = channels;
+            this.frameDuration = frameDuration;
+            this.latencies = new long[(int) (seconds * 1000000L / frameDuration.getMicros())];
+        }
+
+        @Override
+        public void run() {
+            int samplesPerChannel = frameDuration.getSamplesPerChannel(sampleRate);
+            long frameNanos = frameDuration.getMicros() * 1000L;
+
+            OpusEncoder encoder = null;
+            OpusDecoder decoder = null;
+            try {
+                encoder = OpusEncoder.createLowLatency(sampleRate, channels, frameDuration, MAX_ENCODED_FRAME_SIZE);
+                decoder = OpusDecoder.create(sampleRate, channels);
+                lookaheadNanos = encoder.getLookahead() * 1000000000L / sampleRate;
+
+                ShortBuffer pcm = ShortBuffer.allocate(samplesPerChannel * channels);
+                long start = System.nanoTime();
+                for (int frame = 0; frame < latencies.length; ++frame) {
+                    // The moment the capture device delivered the last sample of this frame
+                    long captured = start + (frame + 1) * frameNanos;
+                    long wait = captured - System.nanoTime();
+                    if (wait > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+
+                    fillTone(pcm, frame * samplesPerChannel);
+                    ByteBuffer encoded = encoder.encode(pcm, samplesPerChannel);
+                    decoder.decode(encoded.array(), false);
+
+                    latencies[count++] = System.nanoTime() - captured + lookaheadNanos;
+                }
+            } catch (Exception e) {
+                failure = e;
+            } finally {
+                if (encoder != null) {
+                    encoder.destroy();
+                }
+                if (decoder != null) {
+                    decoder.destroy();
+                }
+            }
+        }
+
+        /** A 440 Hz tone, continuous across frames */
+        private void fillTone(ShortBuffer pcm, int firstSample) {
+            for (int i = 0; i < pcm.capacity() / channels; ++i) {
+                short sample = (short) (8000 * Math.sin(2 * Math.PI * 440 * (firstSample + i) / sampleRate));
+                for (int channel = 0; channel < channels; ++channel) {
+                    pcm.put(i * channels + channel, sample);
+                }
+            }
+        }
+    }
+}
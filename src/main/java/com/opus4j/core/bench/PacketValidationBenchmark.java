@@ -0,0 +1,214 @@
+package com.opus4j.core.bench;
+
+import com.opus4j.core.OpusDecoder;
+import com.opus4j.core.errors.OpusNativeException;
+import com.opus4j.core.validation.PacketStatus;
+import com.opus4j.core.validation.PacketValidator;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Fuzz-driven throughput benchmark of {@link PacketValidator}.
+ *
+ * Builds a corpus of well-formed packets of every code (RFC 6716 section 3.2), then mutates part of them with
+ * bit flips, truncation, extension and random bytes. Measures batch validation throughput and reports how the
+ * corpus was classified. With the "native" argument, also measures the cost of rejecting the same corpus by
+ * decoding it, with and without validating first.
+ *
+ * Usage: PacketValidationBenchmark [packets] [mutation percent] [runs] [native]
+ */
+public class PacketValidationBenchmark {
+
+    private static final int BATCH_SIZE = 64;
+
+    public static void main(String[] args) throws OpusNativeException {
+        int packets = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        int mutationPercent = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        int runs = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        boolean includeNative = args.length > 3 && "native".equals(args[3]);
+
+        Random random = new Random(0x0905);
+        byte[][] corpus = new byte[packets][];
+        for (int i = 0; i < packets; ++i) {
+            byte[] packet = wellFormed(random);
+            corpus[i] = random.nextInt(100) < mutationPercent ? mutate(packet, random) : packet;
+        }
+
+        PacketValidator validator = null;
+        for (int run = 0; run < runs; ++run) {
+            validator = new PacketValidator();
+            long elapsed = validate(validator, corpus);
+            System.out.printf("validate          %,14.0f packets/s  %8.1f ns/packet%n",
+                    packets * 1e9 / elapsed, (double) elapsed / packets);
+        }
+
+        for (PacketStatus status : PacketStatus.values()) {
+            System.out.printf("%-22s %,10d%n", status, validator.getCount(status));
+        }
+
+        if (includeNative) {
+            for (int run = 0; run < runs; ++run) {
+                long elapsed = decode(corpus, null);
+                System.out.printf("decode            %,14.0f packets/s  %8.1f ns/packet%n",
+                        packets * 1e9 / elapsed, (double) elapsed / packets);
+                elapsed = decode(corpus, new PacketValidator());
+                System.out.printf("validate + decode %,14.0f packets/s  %8.1f ns/packet%n",
+                        packets * 1e9 / elapsed, (double) elapsed / packets);
+            }
+        }
+    }
+
+    private static long validate(PacketValidator validator, byte[][] corpus) {
+        byte[][] batch = new byte[BATCH_SIZE][];
+        long start = System.nanoTime();
+        for (int offset = 0; offset < corpus.length; offset += BATCH_SIZE) {
+            int count = Math.min(BATCH_SIZE, corpus.length - offset);
+            System.arraycopy(corpus, offset, batch, 0, count);
+            validator.filter(batch, count);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static long decode(byte[][] corpus, PacketValidator validator) throws OpusNativeException {
+        OpusDecoder decoder = OpusDecoder.create(48000, 2);
+        byte[][] batch = new byte[BATCH_SIZE][];
+        try {
+            long start = System.nanoTime();
+            for (int offset = 0; offset < corpus.length; offset += BATCH_SIZE) {
+                int count = Math.min(BATCH_SIZE, corpus.length - offset);
+                System.arraycopy(corpus, offset, batch, 0, count);
+                if (validator != null) {
+                    count = validator.filter(batch, count);
+                }
+                for (int i = 0; i < count; ++i) {
+                    try {
+                        decoder.decode(batch[i], false);
+                    } catch (OpusNativeException e) {
+                        // Rejected by the native decoder
+                    }
+                }
+            }
+            return System.nanoTime() - start;
+        } finally {
+            decoder.destroy();
+        }
+    }
+
+    /** A random packet with valid framing, using any configuration and code */
+    private static byte[] wellFormed(Random random) {
+        int config = random.nextInt(32);
+        int code = random.nextInt(4);
+        int toc = config << 3 | random.nextInt(2) << 2 | code;
+
+        switch (code) {
+            case 0:
+                return withToc(toc, random.nextInt(200));
+            case 1:
+                return withToc(toc, random.nextInt(100) * 2);
+            case 2: {
+                int first = random.nextInt(300);
+                byte[] lengthBytes = frameLength(first);
+                byte[] packet = withToc(toc, lengthBytes.length + first + random.nextInt(200));
+                System.arraycopy(lengthBytes, 0, packet, 1, lengthBytes.length);
+                return packet;
+            }
+            default: {
+                // Stay within 120 ms: up to 48 frames of 2.5 ms, down to 2 frames of 60 ms
+                int maxFrames = Math.max(1, 5760 / frameSamples(config));
+                int frames = 1 + random.nextInt(maxFrames);
+                boolean vbr = random.nextBoolean();
+                int padding = random.nextInt(4) == 0 ? random.nextInt(300) : 0;
+
+                byte[] header = new byte[2 + 2 * (frames + 2)];
+                int position = 0;
+                header[position++] = (byte) toc;
+                header[position++] = (byte) ((vbr ? 0x80 : 0) | (padding > 0 ? 0x40 : 0) | frames);
+                if (padding > 0) {
+                    int left = padding;
+                    while (left >= 254) {
+                        header[position++] = (byte) 255;
+                        left -= 254;
+                    }
+                    header[position++] = (byte) left;
+                }
+
+                // Keep many-frame packets under the default size limit
+                int maxFrameLength = frames > 8 ? 60 : 300;
+                int payload;
+                if (vbr) {
+                    payload = 0;
+                    for (int i = 0; i < frames - 1; ++i) {
+                        int length = random.nextInt(maxFrameLength);
+                        byte[] lengthBytes = frameLength(length);
+                        System.arraycopy(lengthBytes, 0, header, position, lengthBytes.length);
+                        position += lengthBytes.length;
+                        payload += length;
+                    }
+                    payload += random.nextInt(maxFrameLength);
+                } else {
+                    payload = frames * random.nextInt(Math.min(100, maxFrameLength));
+                }
+
+                byte[] packet = new byte[position + payload + padding];
+                System.arraycopy(header, 0, packet, 0, position);
+                for (int i = position; i < packet.length; ++i) {
+                    packet[i] = (byte) random.nextInt();
+                }
+                return packet;
+            }
+        }
+    }
+
+    /** A packet of the given TOC and random payload */
+    private static byte[] withToc(int toc, int payloadLength) {
+        byte[] packet = new byte[1 + payloadLength];
+        packet[0] = (byte) toc;
+        for (int i = 1; i < packet.length; ++i) {
+            packet[i] = (byte) (i * 31);
+        }
+        return packet;
+    }
+
+    /** A frame length coded in one or two bytes */
+    private static byte[] frameLength(int length) {
+        if (length < 252) {
+            return new byte[] {(byte) length};
+        }
+        int first = 252 + (length & 0x3);
+        return new byte[] {(byte) first, (byte) ((length - first) >> 2)};
+    }
+
+    private static int frameSamples(int config) {
+        if (config < 12) {
+            return new int[] {480, 960, 1920, 2880}[config & 0x3];
+        }
+        if (config < 16) {
+            return new int[] {480, 960}[config & 0x1];
+        }
+        return new int[] {120, 240, 480, 960}[config & 0x3];
+    }
+
+    private static byte[] mutate(byte[] packet, Random random) {
+        switch (random.nextInt(4)) {
+            case 0: {
+                byte[] flipped = packet.clone();
+                int flips = 1 + random.nextInt(3);
+                for (int i = 0; i < flips; ++i) {
+                    int index = random.nextInt(Math.min(flipped.length, 8));
+                    flipped[index] ^= 1 << random.nextInt(8);
+                }
+                return flipped;
+            }
+            case 1:
+                return Arrays.copyOf(packet, random.nextInt(packet.length + 1));
+            case 2:
+                return Arrays.copyOf(packet, packet.length + 1 + random.nextInt(2000));
+            default: {
+                byte[] noise = new byte[random.nextInt(1500)];
+                random.nextBytes(noise);
+                return noise;
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.opus4j.core.bench;
+
+import com.opus4j.core.buffer.PcmRingBuffer;
+
+import java.nio.ShortBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Compares handing PCM frames from a capture thread to an encoder thread through an {@link ArrayBlockingQueue}
+ * of freshly allocated buffers against a {@link PcmRingBuffer}.
+ *
+ * Usage: PcmHandoffBenchmark [frames per run] [runs]
+ */
+public class PcmHandoffBenchmark {
+
+    /** 20 ms at 48 kHz */
+    private static final int SAMPLES_PER_CHANNEL = 960;
+
+    private static final int CHANNELS = 2;
+
+    private static final int QUEUE_CAPACITY = 64;
+
+    public static void main(String[] args) throws InterruptedException {
+        int frames = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        for (int run = 0; run < runs; ++run) {
+            report("ArrayBlockingQueue", frames, runBlockingQueue(frames));
+            report("PcmRingBuffer", frames, runRing(frames, 1));
+            report("PcmRingBuffer (batch 8)", frames, runRing(frames, 8));
+        }
+    }
+
+    private static long runBlockingQueue(final int frames) throws InterruptedException {
+        final BlockingQueue<ShortBuffer> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        final int frameShorts = SAMPLES_PER_CHANNEL * CHANNELS;
+
+        Thread producer = new Thread(() -> {
+            try {
+                for (int i = 0; i < frames; ++i) {
+                    ShortBuffer frame = ShortBuffer.allocate(frameShorts);
+                    fill(frame, i);
+                    queue.put(frame);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        long start = System.nanoTime();
+        producer.start();
+        long checksum = 0;
+        for (int i = 0; i < frames; ++i) {
+            checksum += consume(queue.take());
+        }
+        long elapsed = System.nanoTime() - start;
+        producer.join();
+        blackhole(checksum);
+        return elapsed;
+    }
+
+    private static long runRing(final int frames, int publishBatch) throws InterruptedException {
+        final PcmRingBuffer ring = new PcmRingBuffer(QUEUE_CAPACITY, SAMPLES_PER_CHANNEL, CHANNELS, publishBatch);
+
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < frames; ++i) {
+                ShortBuffer frame;
+                while ((frame = ring.claim()) == null) {
+                    ring.flush();
+                    LockSupport.parkNanos(1);
+                }
+                fill(frame, i);
+                ring.commit();
+            }
+            ring.flush();
+        });
+
+        long start = System.nanoTime();
+        producer.start();
+        long checksum = 0;
+        for (int i = 0; i < frames; ++i) {
+            ShortBuffer frame;
+            while ((frame = ring.poll()) == null) {
+                Thread.yield();
+            }
+            checksum += consume(frame);
+            ring.release();
+        }
+        long elapsed = System.nanoTime() - start;
+        producer.join();
+        blackhole(checksum);
+        return elapsed;
+    }
+
+    /** Stands in for the capture device writing a frame */
+    private static void fill(ShortBuffer frame, int seed) {
+        for (int i = 0; i < frame.limit(); ++i) {
+            frame.put(i, (short) (seed + i));
+        }
+    }
+
+    /** Stands in for the encoder reading a frame */
+    private static long consume(ShortBuffer frame) {
+        long sum = 0;
+        for (int i = 0; i < frame.limit(); ++i) {
+            sum += frame.get(i);
+        }
+        return sum;
+    }
+
+    private static void blackhole(long checksum) {
+        if (checksum == 42) {
+            System.out.println();
+        }
+    }
+
+    private static void report(String name, int frames, long elapsedNanos) {
+        System.out.printf("%-26s %,12.0f frames/s  %8.1f ns/frame%n", name,
+                frames * 1e9 / elapsedNanos, (double) elapsedNanos / frames);
+    }
+}
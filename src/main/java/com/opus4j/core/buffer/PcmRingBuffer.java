@@ -0,0 +1,262 @@
+package com.opus4j.core.buffer;
+
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * A lock-free single-producer/single-consumer ring of PCM frames, backed by a single direct buffer.
+ *
+ * Each slot holds one interleaved frame. The producer (capture thread) claims a slot, fills it and commits it;
+ * the consumer (encoder thread) polls a slot, passes it straight to
+ * {@link com.opus4j.core.OpusEncoder#encode(ShortBuffer, int)} and releases it. Slot views are created once,
+ * in native byte order, so handing a frame over neither allocates nor copies.
+ *
+ * Commits are published to the consumer in batches of {@code publishBatch} frames. With a batch larger than 1
+ * the producer must call {@link #flush()} when it has no more frames for now, or the last frames will not be
+ * seen by the consumer.
+ *
+ * Exactly one thread may call the producer methods ({@link #claim()}, {@link #commit()}, {@link #flush()})
+ * and exactly one thread may call the consumer methods ({@link #poll()}, {@link #release()}).
+ */
+public class PcmRingBuffer extends PcmRingConsumerFields {
+
+    /**
+     * The size of a cache line in bytes. Slots start on a cache line and are padded to it, to avoid false sharing
+     * between neighbours
+     */
+    private static final int CACHE_LINE_BYTES = 64;
+
+    /** The number of slots. A power of two */
+    private final int capacity;
+
+    /** capacity - 1, used to map a sequence to a slot */
+    private final int mask;
+
+    /** The number of samples per channel in a frame */
+    private final int samplesPerChannel;
+
+    /** The number of shorts in a frame (samples per channel * channels) */
+    private final int frameShorts;
+
+    /** The number of committed frames to accumulate before publishing them to the consumer */
+    private final int publishBatch;
+
+    /** Frame views into the backing buffer, one per slot */
+    private final ShortBuffer[] slots;
+
+    /**
+     * c'tor, publishing every committed frame immediately.
+     * @param capacity the number of frames the ring holds. Rounded up to a power of two
+     * @param samplesPerChannel the number of samples per channel in a frame
+     * @param channels the number of channels. Must be one of 1/2
+     */
+    public PcmRingBuffer(int capacity, int samplesPerChannel, int channels) {
+        this(capacity, samplesPerChannel, channels, 1);
+    }
+
+    /**
+     * c'tor.
+     * @param capacity the number of frames the ring holds. Rounded up to a power of two
+     * @param samplesPerChannel the number of samples per channel in a frame
+     * @param channels the number of channels. Must be one of 1/2
+     * @param publishBatch the number of committed frames to accumulate before publishing them to the consumer
+     */
+    public PcmRingBuffer(int capacity, int samplesPerChannel, int channels, int publishBatch) {
+        if (capacity < 1 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("capacity must be between 1 and 2^30");
+        }
+        if (samplesPerChannel < 1) {
+            throw new IllegalArgumentException("samplesPerChannel must be positive");
+        }
+        if (channels != 1 && channels != 2) {
+            throw new IllegalArgumentException("channels must be one of 1/2");
+        }
+        if (publishBatch < 1) {
+            throw new IllegalArgumentException("publishBatch must be positive");
+        }
+
+        this.capacity = nextPowerOfTwo(capacity);
+        this.mask = this.capacity - 1;
+        this.samplesPerChannel = samplesPerChannel;
+        this.frameShorts = samplesPerChannel * channels;
+        this.publishBatch = Math.min(publishBatch, this.capacity);
+
+        int shortsPerLine = CACHE_LINE_BYTES / 2;
+        int stride = (frameShorts + shortsPerLine - 1) / shortsPerLine * shortsPerLine;
+        // allocateDirect gives no cache line alignment on Java 8, so over-allocate and start at the first line
+        ByteBuffer memory = ByteBuffer.allocateDirect(this.capacity * stride * 2 + CACHE_LINE_BYTES);
+        long address = Pointer.nativeValue(Native.getDirectBufferPointer(memory));
+        int misalignment = (int) (address & (CACHE_LINE_BYTES - 1));
+        memory.position(misalignment == 0 ? 0 : CACHE_LINE_BYTES - misalignment);
+        ShortBuffer backing = memory.slice()
+                .order(ByteOrder.nativeOrder())
+                .asShortBuffer();
+
+        this.slots = new ShortBuffer[this.capacity];
+        for (int i = 0; i < this.capacity; ++i) {
+            backing.limit(i * stride + frameShorts).position(i * stride);
+            slots[i] = backing.slice();
+        }
+    }
+
+    /**
+     * Claim the next free slot for writing. Producer only.
+     * The returned view is cleared and exactly one frame long. Fill it, then call {@link #commit()}.
+     * Calling claim again before committing returns the same slot.
+     *
+     * @return the slot to write the next frame into, or null if the ring is full
+     */
+    public ShortBuffer claim() {
+        long index = producerIndex;
+        if (index - producerCachedHead >= capacity) {
+            producerCachedHead = head;
+            if (index - producerCachedHead >= capacity) {
+                return null;
+            }
+        }
+
+        ShortBuffer slot = slots[(int) index & mask];
+        slot.clear();
+        return slot;
+    }
+
+    /**
+     * Commit the slot returned by the last {@link #claim()}. Producer only.
+     * The frame becomes visible to the consumer once a full batch was committed, or on {@link #flush()}.
+     */
+    public void commit() {
+        ++producerIndex;
+        if (++producerPending >= publishBatch) {
+            flush();
+        }
+    }
+
+    /**
+     * Publish all committed frames to the consumer. Producer only.
+     */
+    public void flush() {
+        if (producerPending > 0) {
+            producerPending = 0;
+            TAIL_UPDATER.lazySet(this, producerIndex);
+        }
+    }
+
+    /**
+     * Get the next published frame. Consumer only.
+     * The returned view spans exactly one frame and may be passed directly to the encoder. Call
+     * {@link #release()} once done with it; calling poll again before releasing returns the same frame.
+     *
+     * @return the next frame, or null if no frame was published
+     */
+    public ShortBuffer poll() {
+        long index = consumerIndex;
+        if (index >= consumerCachedTail) {
+            consumerCachedTail = tail;
+            if (index >= consumerCachedTail) {
+                return null;
+            }
+        }
+
+        ShortBuffer slot = slots[(int) index & mask];
+        slot.clear();
+        return slot;
+    }
+
+    /**
+     * Return the frame obtained by the last {@link #poll()} to the producer. Consumer only.
+     */
+    public void release() {
+        HEAD_UPDATER.lazySet(this, ++consumerIndex);
+    }
+
+    /**
+     * Get the number of published frames that were not released yet.
+     * Only a snapshot when called concurrently with the producer or consumer.
+     * @return the number of frames
+     */
+    public int size() {
+        long consumed = head;
+        return (int) (tail - consumed);
+    }
+
+    /**
+     * Get the number of frames the ring holds
+     * @return the capacity
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Get the number of samples per channel in a frame. The value to pass to the encoder along with a frame
+     * @return the number of samples per channel
+     */
+    public int getSamplesPerChannel() {
+        return samplesPerChannel;
+    }
+
+    /**
+     * Get the number of shorts in a frame, all channels interleaved
+     * @return the frame length
+     */
+    public int getFrameShorts() {
+        return frameShorts;
+    }
+
+    private static int nextPowerOfTwo(int value) {
+        return value == 1 ? 1 : Integer.highestOneBit(value - 1) << 1;
+    }
+}
+
+/** Padding before the producer fields */
+abstract class PcmRingPad0 {
+    long p00, p01, p02, p03, p04, p05, p06, p07;
+}
+
+/** The producer side of the ring. Only tail is read by the consumer */
+abstract class PcmRingProducerFields extends PcmRingPad0 {
+
+    static final AtomicLongFieldUpdater<PcmRingProducerFields> TAIL_UPDATER =
+            AtomicLongFieldUpdater.newUpdater(PcmRingProducerFields.class, "tail");
+
+    /** The sequence of the next frame the consumer may not read yet. Published by the producer */
+    volatile long tail;
+
+    /** The sequence of the next frame to write. Producer only */
+    long producerIndex;
+
+    /** The last value of head seen by the producer. Producer only */
+    long producerCachedHead;
+
+    /** The number of frames committed but not published yet. Producer only */
+    int producerPending;
+}
+
+/** Padding between the producer and the consumer fields */
+abstract class PcmRingPad1 extends PcmRingProducerFields {
+    long p10, p11, p12, p13, p14, p15, p16, p17;
+}
+
+/** The consumer side of the ring. Only head is read by the producer */
+abstract class PcmRingConsumerFields extends PcmRingPad1 {
+
+    static final AtomicLongFieldUpdater<PcmRingConsumerFields> HEAD_UPDATER =
+            AtomicLongFieldUpdater.newUpdater(PcmRingConsumerFields.class, "head");
+
+    /** The sequence of the next frame the producer may not overwrite yet. Published by the consumer */
+    volatile long head;
+
+    /** The sequence of the next frame to read. Consumer only */
+    long consumerIndex;
+
+    /** The last value of tail seen by the consumer. Consumer only */
+    long consumerCachedTail;
+
+    /** Padding between the consumer fields and the read-only fields of the ring */
+    long p20, p21, p22, p23, p24, p25, p26, p27;
+}
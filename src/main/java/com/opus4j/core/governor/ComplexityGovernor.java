@@ -0,0 +1,238 @@
+package com.opus4j.core.governor;
+
+import com.opus4j.core.OpusEncoder;
+import com.opus4j.core.errors.OpusNativeException;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps the aggregate encode time of all live encoders under a CPU budget.
+ *
+ * Every registered encoder reports the time spent in each encode call. Once per window the governor compares
+ * the total to the window length:
+ * <ul>
+ *     <li>Over budget - every encoder of the lowest priority class that can still be degraded loses one
+ *     complexity step.</li>
+ *     <li>Under the recovery threshold for several consecutive windows - every encoder of the highest priority
+ *     class that was degraded gets one complexity step back.</li>
+ * </ul>
+ * The gap between the budget and the recovery threshold, together with the required run of calm windows,
+ * keeps the governor from oscillating around the budget.
+ *
+ * Thread-safe. Encoders may be registered, used and destroyed from any thread.
+ */
+public class ComplexityGovernor {
+
+    /** Default fraction of the budget load must drop below before complexity is restored */
+    public static final double DEFAULT_RECOVERY_RATIO = 0.75;
+
+    /** Default number of consecutive calm windows required before complexity is restored */
+    public static final int DEFAULT_RECOVERY_WINDOWS = 3;
+
+    /** The budget, in CPU cores worth of encode time (e.g. 2.5 means 2.5 cores fully busy encoding) */
+    private final double cpuBudget;
+
+    /** Fraction of the budget load must drop below before complexity is restored */
+    private final double recoveryRatio;
+
+    /** Number of consecutive calm windows required before complexity is restored */
+    private final int recoveryWindows;
+
+    /** The length of an evaluation window, in milliseconds */
+    private final long windowMillis;
+
+    /** All live registered encoders */
+    private final Set<GovernedEncoder> encoders = ConcurrentHashMap.newKeySet();
+
+    /** Encode time accumulated since the last evaluation */
+    private final LongAdder encodeNanos = new LongAdder();
+
+    /** The time of the last evaluation. Guarded by this */
+    private long lastEvaluationNanos = System.nanoTime();
+
+    /** The number of consecutive windows below the recovery threshold. Guarded by this */
+    private int calmWindows;
+
+    /** The load measured in the last evaluation, in CPU cores */
+    private volatile double lastLoad;
+
+    /** The scheduler driving evaluations, when started. Guarded by this */
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * c'tor, using the default hysteresis.
+     * @param cpuBudget the budget, in CPU cores worth of encode time
+     * @param windowMillis the length of an evaluation window, in milliseconds
+     */
+    public ComplexityGovernor(double cpuBudget, long windowMillis) {
+        this(cpuBudget, windowMillis, DEFAULT_RECOVERY_RATIO, DEFAULT_RECOVERY_WINDOWS);
+    }
+
+    /**
+     * c'tor.
+     * @param cpuBudget the budget, in CPU cores worth of encode time
+     * @param windowMillis the length of an evaluation window, in milliseconds
+     * @param recoveryRatio fraction of the budget (exclusive 0-1) load must drop below before complexity is
+     *                      restored
+     * @param recoveryWindows number of consecutive calm windows required before complexity is restored
+     */
+    public ComplexityGovernor(double cpuBudget, long windowMillis, double recoveryRatio, int recoveryWindows) {
+        if (cpuBudget <= 0) {
+            throw new IllegalArgumentException("cpuBudget must be positive");
+        }
+        if (windowMillis <= 0) {
+            throw new IllegalArgumentException("windowMillis must be positive");
+        }
+        if (recoveryRatio <= 0 || recoveryRatio >= 1) {
+            throw new IllegalArgumentException("recoveryRatio must be between 0 and 1");
+        }
+        if (recoveryWindows < 1) {
+            throw new IllegalArgumentException("recoveryWindows must be at least 1");
+        }
+        this.cpuBudget = cpuBudget;
+        this.windowMillis = windowMillis;
+        this.recoveryRatio = recoveryRatio;
+        this.recoveryWindows = recoveryWindows;
+    }
+
+    /**
+     * Register an encoder with the governor.
+     * The encoder's current complexity becomes the highest complexity the governor will restore it to.
+     * From now on the encoder must only be used through the returned handle.
+     *
+     * @param encoder the encoder to govern
+     * @param priority the priority class of the encoder
+     * @return a handle to encode with
+     * @throws OpusNativeException in case the current complexity could not be read
+     */
+    public GovernedEncoder register(OpusEncoder encoder, EncoderPriority priority) throws OpusNativeException {
+        GovernedEncoder governed = new GovernedEncoder(this, encoder, priority, encoder.getComplexity());
+        encoders.add(governed);
+        return governed;
+    }
+
+    /**
+     * Start evaluating once per window on a background daemon thread.
+     * Alternatively, call {@link #evaluate()} from an existing timer.
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "opus4j-complexity-governor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::evaluate, windowMillis, windowMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop the background evaluation started by {@link #start()}.
+     * Registered encoders keep their current complexity.
+     */
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * Measure the load of the window that ended now, and adjust the complexity of the registered encoders.
+     */
+    public synchronized void evaluate() {
+        long now = System.nanoTime();
+        long elapsed = now - lastEvaluationNanos;
+        if (elapsed <= 0) {
+            return;
+        }
+        lastEvaluationNanos = now;
+
+        double load = (double) encodeNanos.sumThenReset() / elapsed;
+        lastLoad = load;
+
+        if (load > cpuBudget) {
+            calmWindows = 0;
+            degrade();
+        } else if (load < cpuBudget * recoveryRatio) {
+            if (++calmWindows >= recoveryWindows) {
+                calmWindows = 0;
+                restore();
+            }
+        } else {
+            calmWindows = 0;
+        }
+    }
+
+    /**
+     * Get the load measured in the last evaluation
+     * @return the load, in CPU cores worth of encode time
+     */
+    public double getLastLoad() {
+        return lastLoad;
+    }
+
+    /**
+     * Get the number of live registered encoders
+     * @return the number of encoders
+     */
+    public int getEncoderCount() {
+        return encoders.size();
+    }
+
+    /**
+     * Add the time spent in a single encode call to the current window.
+     */
+    void record(long nanos) {
+        encodeNanos.add(nanos);
+    }
+
+    /**
+     * Stop governing an encoder.
+     */
+    void unregister(GovernedEncoder encoder) {
+        encoders.remove(encoder);
+    }
+
+    /**
+     * Lower one complexity step on the lowest priority class that can still be degraded.
+     */
+    private void degrade() {
+        EncoderPriority[] priorities = EncoderPriority.values();
+        for (int i = 0; i < priorities.length; ++i) {
+            boolean changed = false;
+            for (GovernedEncoder encoder : encoders) {
+                if (encoder.getPriority() == priorities[i]) {
+                    changed |= encoder.degrade();
+                }
+            }
+            if (changed) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Restore one complexity step on the highest priority class that was degraded.
+     */
+    private void restore() {
+        EncoderPriority[] priorities = EncoderPriority.values();
+        for (int i = priorities.length - 1; i >= 0; --i) {
+            boolean changed = false;
+            for (GovernedEncoder encoder : encoders) {
+                if (encoder.getPriority() == priorities[i]) {
+                    changed |= encoder.restore();
+                }
+            }
+            if (changed) {
+                return;
+            }
+        }
+    }
+}
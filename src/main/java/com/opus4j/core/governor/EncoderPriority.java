@@ -0,0 +1,32 @@
+package com.opus4j.core.governor;
+
+/**
+ * The priority class of an encoder registered with a {@link ComplexityGovernor}.
+ * When the node is over its CPU budget, lower priority encoders are degraded first, and they are the last
+ * to be restored once load drops.
+ */
+public enum EncoderPriority {
+    /** Best-effort streams. May be degraded all the way down to complexity 0 */
+    LOW (0),
+
+    /** Regular streams */
+    NORMAL (3),
+
+    /** Streams where quality matters most. Degraded last, and never below a moderate complexity */
+    HIGH (6);
+
+    /** The lowest complexity the governor may set for encoders of this class */
+    private final int minComplexity;
+
+    EncoderPriority(int minComplexity) {
+        this.minComplexity = minComplexity;
+    }
+
+    /**
+     * Get the lowest complexity the governor may set for encoders of this class
+     * @return the complexity floor, 0-10
+     */
+    public int getMinComplexity() {
+        return minComplexity;
+    }
+}
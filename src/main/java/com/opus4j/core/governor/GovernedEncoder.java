@@ -0,0 +1,120 @@
+package com.opus4j.core.governor;
+
+import com.opus4j.core.OpusEncoder;
+import com.opus4j.core.errors.OpusNativeException;
+
+import java.nio.ByteBuffer;
+import java.nio.ShortBuffer;
+
+/**
+ * An {@link OpusEncoder} registered with a {@link ComplexityGovernor}.
+ * Encode time is reported to the governor, and complexity changes requested by the governor are applied on
+ * the encoding thread right before the next frame, so the native state is never touched concurrently.
+ *
+ * No thread-safe guaranteed, same as the wrapped encoder.
+ */
+public class GovernedEncoder {
+
+    /** The governor this encoder reports to */
+    private final ComplexityGovernor governor;
+
+    /** The wrapped encoder */
+    private final OpusEncoder encoder;
+
+    /** The priority class of this encoder */
+    private final EncoderPriority priority;
+
+    /** The highest complexity the governor may restore this encoder to. The complexity it was registered with */
+    private final int maxComplexity;
+
+    /** The complexity requested by the governor. Written by the governor, read by the encoding thread */
+    private volatile int targetComplexity;
+
+    /** The complexity currently set on the native state. Encoding thread only */
+    private int appliedComplexity;
+
+    /**
+     * Internal c'tor
+     * @param complexity the complexity the encoder is currently configured with
+     */
+    GovernedEncoder(ComplexityGovernor governor, OpusEncoder encoder, EncoderPriority priority, int complexity) {
+        this.governor = governor;
+        this.encoder = encoder;
+        this.priority = priority;
+        this.maxComplexity = complexity;
+        this.targetComplexity = complexity;
+        this.appliedComplexity = complexity;
+    }
+
+    /**
+     * Encode a frame, applying any pending complexity change first.
+     * @see OpusEncoder#encode(ShortBuffer, int)
+     * @return the output buffer, Copied for further usage.
+     * @throws OpusNativeException in case of native error while encoding.
+     */
+    public ByteBuffer encode(ShortBuffer toEncode, int samplesPerChannel) throws OpusNativeException {
+        int target = targetComplexity;
+        if (target != appliedComplexity) {
+            encoder.setComplexity(target);
+            appliedComplexity = target;
+        }
+
+        long start = System.nanoTime();
+        try {
+            return encoder.encode(toEncode, samplesPerChannel);
+        } finally {
+            governor.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Get the complexity the governor currently wants for this encoder.
+     * @return the target complexity, 0-10
+     */
+    public int getTargetComplexity() {
+        return targetComplexity;
+    }
+
+    /**
+     * Get the priority class of this encoder
+     * @return the priority class
+     */
+    public EncoderPriority getPriority() {
+        return priority;
+    }
+
+    /**
+     * Unregister from the governor and destroy the native state.
+     * MUST be called in order to avoid memory leaks.
+     */
+    public void destroy() {
+        governor.unregister(this);
+        encoder.destroy();
+    }
+
+    /**
+     * Lower the target complexity by one step, unless already at the floor of the priority class.
+     * @return true if the target was changed
+     */
+    boolean degrade() {
+        int target = targetComplexity;
+        if (target <= priority.getMinComplexity()) {
+            return false;
+        }
+        targetComplexity = target - 1;
+        return true;
+    }
+
+    /**
+     * Raise the target complexity by one step, unless already at the registered complexity.
+     * @return true if the target was changed
+     */
+    boolean restore() {
+        int target = targetComplexity;
+        if (target >= maxComplexity) {
+            return false;
+        }
+        targetComplexity = target + 1;
+        return true;
+    }
+}
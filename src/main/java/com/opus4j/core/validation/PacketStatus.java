@@ -0,0 +1,33 @@
+package com.opus4j.core.validation;
+
+/**
+ * The outcome of validating a single Opus packet.
+ * Rule numbers refer to RFC 6716 section 3.4.
+ */
+public enum PacketStatus {
+    VALID ("Valid packet"),
+    EMPTY ("Packet is null or empty (R1)"),
+    TOO_LARGE ("Packet exceeds the configured size limit"),
+    FRAME_TOO_LONG ("A frame is longer than 1275 bytes (R2)"),
+    ODD_CBR_LENGTH ("Code 1 packet does not split into two equal frames (R3)"),
+    FRAME_LENGTH_OVERFLOW ("A coded frame length is truncated or runs past the end of the packet (R4, R7)"),
+    NO_FRAMES ("Code 3 packet has zero frames (R5)"),
+    DURATION_TOO_LONG ("Packet lasts longer than 120 ms (R5)"),
+    PADDING_OVERFLOW ("Padding runs past the end of the packet"),
+    CBR_NOT_DIVISIBLE ("Code 3 CBR payload does not split into equal frames (R6)");
+
+    /** A description of the status */
+    private final String msg;
+
+    PacketStatus(String msg) {
+        this.msg = msg;
+    }
+
+    /**
+     * Get a description of the status
+     * @return the msg
+     */
+    public String getMsg() {
+        return msg;
+    }
+}
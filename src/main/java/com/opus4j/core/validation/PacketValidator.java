@@ -0,0 +1,234 @@
+package com.opus4j.core.validation;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Validates Opus packets in pure Java, before they reach the native decoder.
+ *
+ * Checks the TOC byte, frame length coding, padding and the constraints of RFC 6716 section 3.4, plus a
+ * configurable size limit. Invalid packets can then be dropped without paying for a native call and an
+ * exception each. Passing the validator does not guarantee the payload decodes, only that its framing is
+ * well formed.
+ *
+ * Counts every validated packet by {@link PacketStatus}. Thread-safe; a single validator may be shared by
+ * all decoding threads.
+ */
+public class PacketValidator {
+
+    /** Default size limit. The buffer size libopus recommends for a single encoded packet */
+    public static final int DEFAULT_MAX_PACKET_SIZE = 4000;
+
+    /** The longest a single frame may be, in bytes (R2) */
+    private static final int MAX_FRAME_LENGTH = 1275;
+
+    /** The longest a packet may last, in samples at 48 kHz (R5) */
+    private static final int MAX_PACKET_SAMPLES = 5760;
+
+    /** Frame durations at 48 kHz, indexed by TOC configuration number */
+    private static final int[] FRAME_SAMPLES = {
+            // SILK-only: 10, 20, 40, 60 ms for NB, MB and WB
+            480, 960, 1920, 2880, 480, 960, 1920, 2880, 480, 960, 1920, 2880,
+            // Hybrid: 10, 20 ms for SWB and FB
+            480, 960, 480, 960,
+            // CELT-only: 2.5, 5, 10, 20 ms for NB, WB, SWB and FB
+            120, 240, 480, 960, 120, 240, 480, 960, 120, 240, 480, 960, 120, 240, 480, 960
+    };
+
+    /** The largest packet accepted, in bytes */
+    private final int maxPacketSize;
+
+    /** Number of packets validated, indexed by {@link PacketStatus#ordinal()} */
+    private final AtomicLongArray counts = new AtomicLongArray(PacketStatus.values().length);
+
+    /**
+     * c'tor, using {@link #DEFAULT_MAX_PACKET_SIZE}.
+     */
+    public PacketValidator() {
+        this(DEFAULT_MAX_PACKET_SIZE);
+    }
+
+    /**
+     * c'tor.
+     * @param maxPacketSize the largest packet accepted, in bytes
+     */
+    public PacketValidator(int maxPacketSize) {
+        if (maxPacketSize < 1) {
+            throw new IllegalArgumentException("maxPacketSize must be positive");
+        }
+        this.maxPacketSize = maxPacketSize;
+    }
+
+    /**
+     * Validate a single packet and count the outcome.
+     * @param packet the packet to validate
+     * @return {@link PacketStatus#VALID}, or the first rule the packet breaks
+     */
+    public PacketStatus validate(byte[] packet) {
+        PacketStatus status = check(packet);
+        counts.incrementAndGet(status.ordinal());
+        return status;
+    }
+
+    /**
+     * Validate a batch of packets and drop the invalid ones.
+     * Valid packets are moved to the front of the array, keeping their order, and the rest of the first
+     * {@code count} entries are set to null. Counters are updated once per batch.
+     *
+     * @param packets the packets to validate. Modified in place
+     * @param count the number of packets in the array to validate
+     * @return the number of valid packets, now at the front of the array
+     */
+    public int filter(byte[][] packets, int count) {
+        int[] batchCounts = new int[PacketStatus.values().length];
+        int valid = 0;
+        for (int i = 0; i < count; ++i) {
+            byte[] packet = packets[i];
+            PacketStatus status = check(packet);
+            ++batchCounts[status.ordinal()];
+            if (status == PacketStatus.VALID) {
+                packets[valid++] = packet;
+            }
+        }
+        for (int i = valid; i < count; ++i) {
+            packets[i] = null;
+        }
+
+        for (int i = 0; i < batchCounts.length; ++i) {
+            if (batchCounts[i] != 0) {
+                counts.addAndGet(i, batchCounts[i]);
+            }
+        }
+        return valid;
+    }
+
+    /**
+     * Get the number of packets validated with the given outcome, since creation.
+     * @param status the outcome
+     * @return the number of packets
+     */
+    public long getCount(PacketStatus status) {
+        return counts.get(status.ordinal());
+    }
+
+    /**
+     * Check a packet without counting the outcome.
+     * @param packet the packet to check. May be null
+     * @return {@link PacketStatus#VALID}, or the first rule the packet breaks
+     */
+    PacketStatus check(byte[] packet) {
+        if (packet == null || packet.length < 1) {
+            return PacketStatus.EMPTY;
+        }
+        if (packet.length > maxPacketSize) {
+            return PacketStatus.TOO_LARGE;
+        }
+
+        int toc = packet[0] & 0xff;
+        int position = 1;
+        int remaining = packet.length - 1;
+
+        switch (toc & 0x3) {
+            case 0:
+                return remaining > MAX_FRAME_LENGTH ? PacketStatus.FRAME_TOO_LONG : PacketStatus.VALID;
+            case 1:
+                if ((remaining & 1) != 0) {
+                    return PacketStatus.ODD_CBR_LENGTH;
+                }
+                return remaining / 2 > MAX_FRAME_LENGTH ? PacketStatus.FRAME_TOO_LONG : PacketStatus.VALID;
+            case 2: {
+                int first = frameLength(packet, position, remaining);
+                if (first < 0) {
+                    return PacketStatus.FRAME_LENGTH_OVERFLOW;
+                }
+                remaining -= lengthBytes(first);
+                if (first > remaining) {
+                    return PacketStatus.FRAME_LENGTH_OVERFLOW;
+                }
+                return remaining - first > MAX_FRAME_LENGTH ? PacketStatus.FRAME_TOO_LONG : PacketStatus.VALID;
+            }
+            default:
+                return checkCode3(packet, toc, position, remaining);
+        }
+    }
+
+    /**
+     * Check the frame count byte, padding and frame lengths of a code 3 packet.
+     */
+    private static PacketStatus checkCode3(byte[] packet, int toc, int position, int remaining) {
+        if (remaining < 1) {
+            return PacketStatus.FRAME_LENGTH_OVERFLOW;
+        }
+        int frameCount = packet[position++] & 0xff;
+        remaining--;
+
+        boolean vbr = (frameCount & 0x80) != 0;
+        boolean padded = (frameCount & 0x40) != 0;
+        int frames = frameCount & 0x3f;
+        if (frames == 0) {
+            return PacketStatus.NO_FRAMES;
+        }
+        if (frames * FRAME_SAMPLES[toc >> 3] > MAX_PACKET_SAMPLES) {
+            return PacketStatus.DURATION_TOO_LONG;
+        }
+
+        if (padded) {
+            int padding;
+            do {
+                if (remaining < 1) {
+                    return PacketStatus.PADDING_OVERFLOW;
+                }
+                padding = packet[position++] & 0xff;
+                remaining -= 1 + (padding == 255 ? 254 : padding);
+            } while (padding == 255);
+            if (remaining < 0) {
+                return PacketStatus.PADDING_OVERFLOW;
+            }
+        }
+
+        if (!vbr) {
+            if (remaining % frames != 0) {
+                return PacketStatus.CBR_NOT_DIVISIBLE;
+            }
+            return remaining / frames > MAX_FRAME_LENGTH ? PacketStatus.FRAME_TOO_LONG : PacketStatus.VALID;
+        }
+
+        for (int i = 0; i < frames - 1; ++i) {
+            int frame = frameLength(packet, position, remaining);
+            if (frame < 0) {
+                return PacketStatus.FRAME_LENGTH_OVERFLOW;
+            }
+            position += lengthBytes(frame);
+            remaining -= lengthBytes(frame);
+            if (frame > remaining) {
+                return PacketStatus.FRAME_LENGTH_OVERFLOW;
+            }
+            remaining -= frame;
+        }
+        return remaining > MAX_FRAME_LENGTH ? PacketStatus.FRAME_TOO_LONG : PacketStatus.VALID;
+    }
+
+    /**
+     * Decode a frame length coded in one or two bytes (RFC 6716 section 3.2.1).
+     * @return the frame length, or -1 if the coded length is truncated
+     */
+    private static int frameLength(byte[] packet, int position, int remaining) {
+        if (remaining < 1) {
+            return -1;
+        }
+        int first = packet[position] & 0xff;
+        if (first < 252) {
+            return first;
+        }
+        if (remaining < 2) {
+            return -1;
+        }
+        return (packet[position + 1] & 0xff) * 4 + first;
+    }
+
+    /**
+     * Get the number of bytes used to code a frame length.
+     */
+    private static int lengthBytes(int frameLength) {
+        return frameLength < 252 ? 1 : 2;
+    }
+}